@@ -11,11 +11,22 @@ public interface ShimmerCallBack {
 
     int getViewHeight();
 
+    int getViewId();
+
     void doInvalidate();
 
+    void doPostInvalidate();
+
     void startAnimation();
 
     void stopAnimation();
 
+    /**
+     * Called by the helper whenever its shimmer animation starts or stops
+     */
+    void onShimmerStateChanged(boolean started);
+
     void superDispatchDraw(Canvas canvas);
+
+    ShimmerHelper getShimmerHelper();
 }
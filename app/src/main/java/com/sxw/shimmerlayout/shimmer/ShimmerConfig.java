@@ -0,0 +1,396 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.animation.ObjectAnimator;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.util.LruCache;
+
+import com.sxw.shimmerlayout.R;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable set of shimmer parameters, parsed from the ShimmerFrameLayout attributes.
+ * Parsed configurations are cached per theme, so repeat inflations of the same layout skip
+ * obtainStyledAttributes entirely.
+ */
+public final class ShimmerConfig {
+    private static final int CACHE_SIZE_PER_THEME = 32;
+
+    private static final ShimmerConfig DEFAULT = new Builder().build();
+
+    // theme -> (resources configuration and shimmer attribute values -> parsed config), the
+    // theme keys are weak so a destroyed activity does not keep its cache alive
+    private static final Map<Resources.Theme, LruCache<String, ShimmerConfig>> sCache =
+            new WeakHashMap<>();
+
+    public final boolean autoStart;
+    public final float baseAlpha;
+    public final int duration;
+    public final int repeatCount;
+    public final int repeatDelay;
+    public final int repeatMode;
+
+    public final ShimmerHelper.MaskAngle angle;
+    public final ShimmerHelper.MaskShape shape;
+    public final float dropoff;
+    public final int fixedWidth;
+    public final int fixedHeight;
+    public final float intensity;
+    public final float relativeWidth;
+    public final float relativeHeight;
+    public final float tilt;
+
+    public final ShimmerHelper.HighlightMode highlightMode;
+    public final int highlightColor;
+
+    private ShimmerConfig(Builder builder) {
+        autoStart = builder.autoStart;
+        baseAlpha = builder.baseAlpha;
+        duration = builder.duration;
+        repeatCount = builder.repeatCount;
+        repeatDelay = builder.repeatDelay;
+        repeatMode = builder.repeatMode;
+        angle = builder.angle;
+        shape = builder.shape;
+        dropoff = builder.dropoff;
+        fixedWidth = builder.fixedWidth;
+        fixedHeight = builder.fixedHeight;
+        intensity = builder.intensity;
+        relativeWidth = builder.relativeWidth;
+        relativeHeight = builder.relativeHeight;
+        tilt = builder.tilt;
+        highlightMode = builder.highlightMode;
+        highlightColor = builder.highlightColor;
+    }
+
+    public static ShimmerConfig getDefault() {
+        return DEFAULT;
+    }
+
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * Get the configuration described by the given attributes, reusing a previously parsed one
+     * when the same attribute values were already seen under the same theme and resources
+     * configuration
+     */
+    public static ShimmerConfig obtain(Context context, AttributeSet attrs) {
+        if (attrs == null) {
+            return DEFAULT;
+        }
+        Resources.Theme theme = context.getTheme();
+        String key = cacheKey(context.getResources(), attrs);
+        synchronized (sCache) {
+            LruCache<String, ShimmerConfig> themeCache = sCache.get(theme);
+            if (themeCache != null) {
+                ShimmerConfig cached = themeCache.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
+        ShimmerConfig config = parse(context, attrs);
+        synchronized (sCache) {
+            LruCache<String, ShimmerConfig> themeCache = sCache.get(theme);
+            if (themeCache == null) {
+                themeCache = new LruCache<>(CACHE_SIZE_PER_THEME);
+                sCache.put(theme, themeCache);
+            }
+            themeCache.put(key, config);
+        }
+        return config;
+    }
+
+    /**
+     * Build a key from the resources configuration, the style and the raw values of the shimmer
+     * attributes only, so rows that differ in unrelated attributes (ids, layout params) still share
+     * one configuration. The raw values are references and unresolved dimensions, so the parts of
+     * the configuration they resolve against are part of the key: on API 23+ a recreated activity's
+     * theme equals the old one, and an activity handling configChanges keeps the same theme.
+     */
+    private static String cacheKey(Resources resources, AttributeSet attrs) {
+        Configuration configuration = resources.getConfiguration();
+        StringBuilder key = new StringBuilder();
+        key.append(resources.getDisplayMetrics().densityDpi)
+                .append(',').append(configuration.orientation)
+                .append(',').append(configuration.screenWidthDp)
+                .append(',').append(configuration.screenHeightDp)
+                .append(',').append(configuration.smallestScreenWidthDp)
+                .append(',').append(configuration.screenLayout)
+                .append(',').append(configuration.fontScale)
+                .append(',').append(configuration.uiMode)
+                .append(',').append(getLocales(configuration))
+                .append('|');
+        key.append(attrs.getStyleAttribute());
+        int[] styleable = R.styleable.ShimmerFrameLayout;
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+            int nameResource = attrs.getAttributeNameResource(i);
+            for (int attr : styleable) {
+                if (attr == nameResource) {
+                    key.append('|').append(nameResource).append('=').append(attrs.getAttributeValue(i));
+                    break;
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static String getLocales(Configuration configuration) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return configuration.getLocales().toLanguageTags();
+        }
+        return String.valueOf(configuration.locale);
+    }
+
+    static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    private static ShimmerConfig parse(Context context, AttributeSet attrs) {
+        Builder builder = new Builder();
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.ShimmerFrameLayout, 0, 0);
+        try {
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_auto_start)) {
+                builder.setAutoStart(a.getBoolean(R.styleable.ShimmerFrameLayout_auto_start, true));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_base_alpha)) {
+                builder.setBaseAlpha(a.getFloat(R.styleable.ShimmerFrameLayout_base_alpha, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_duration)) {
+                builder.setDuration(a.getInt(R.styleable.ShimmerFrameLayout_duration, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_repeat_count)) {
+                builder.setRepeatCount(a.getInt(R.styleable.ShimmerFrameLayout_repeat_count, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_repeat_delay)) {
+                builder.setRepeatDelay(a.getInt(R.styleable.ShimmerFrameLayout_repeat_delay, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_repeat_mode)) {
+                builder.setRepeatMode(a.getInt(R.styleable.ShimmerFrameLayout_repeat_mode, 0));
+            }
+
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_angle)) {
+                int angle = a.getInt(R.styleable.ShimmerFrameLayout_angle, 0);
+                switch (angle) {
+                    default:
+                    case 0:
+                        builder.setAngle(ShimmerHelper.MaskAngle.CW_0);
+                        break;
+                    case 90:
+                        builder.setAngle(ShimmerHelper.MaskAngle.CW_90);
+                        break;
+                    case 180:
+                        builder.setAngle(ShimmerHelper.MaskAngle.CW_180);
+                        break;
+                    case 270:
+                        builder.setAngle(ShimmerHelper.MaskAngle.CW_270);
+                        break;
+                }
+            }
+
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_shape)) {
+                int shape = a.getInt(R.styleable.ShimmerFrameLayout_shape, 0);
+                switch (shape) {
+                    default:
+                    case 0:
+                        builder.setShape(ShimmerHelper.MaskShape.LINEAR);
+                        break;
+                    case 1:
+                        builder.setShape(ShimmerHelper.MaskShape.RADIAL);
+                        break;
+                }
+            }
+
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_dropoff)) {
+                builder.setDropoff(a.getFloat(R.styleable.ShimmerFrameLayout_dropoff, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_fixed_width)) {
+                builder.setFixedWidth(a.getDimensionPixelSize(R.styleable.ShimmerFrameLayout_fixed_width, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_fixed_height)) {
+                builder.setFixedHeight(a.getDimensionPixelSize(R.styleable.ShimmerFrameLayout_fixed_height, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_intensity)) {
+                builder.setIntensity(a.getFloat(R.styleable.ShimmerFrameLayout_intensity, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_relative_width)) {
+                builder.setRelativeWidth(a.getFloat(R.styleable.ShimmerFrameLayout_relative_width, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_relative_height)) {
+                builder.setRelativeHeight(a.getFloat(R.styleable.ShimmerFrameLayout_relative_height, 0));
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_tilt)) {
+                builder.setTilt(a.getFloat(R.styleable.ShimmerFrameLayout_tilt, 0));
+            }
+
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_highlight_mode)) {
+                int highlightMode = a.getInt(R.styleable.ShimmerFrameLayout_highlight_mode, 0);
+                switch (highlightMode) {
+                    default:
+                    case 0:
+                        builder.setHighlightMode(ShimmerHelper.HighlightMode.MASK);
+                        break;
+                    case 1:
+                        builder.setHighlightMode(ShimmerHelper.HighlightMode.COLOR);
+                        break;
+                }
+            }
+            if (a.hasValue(R.styleable.ShimmerFrameLayout_highlight_color)) {
+                builder.setHighlightColor(a.getColor(R.styleable.ShimmerFrameLayout_highlight_color, Color.WHITE));
+            }
+        } finally {
+            a.recycle();
+        }
+        return builder.build();
+    }
+
+    public static class Builder {
+
+        // containers have always started on their first layout; auto_start="false" opts a
+        // container out so it stays as cheap as a plain layout until startAnimation()
+        private boolean autoStart = true;
+        private float baseAlpha = 0.3f;
+        private int duration = 1000;
+        private int repeatCount = ObjectAnimator.INFINITE;
+        private int repeatDelay = 0;
+        private int repeatMode = ObjectAnimator.RESTART;
+
+        private ShimmerHelper.MaskAngle angle = ShimmerHelper.MaskAngle.CW_0;
+        private ShimmerHelper.MaskShape shape = ShimmerHelper.MaskShape.LINEAR;
+        private float dropoff = 0.5f;
+        private int fixedWidth = 0;
+        private int fixedHeight = 0;
+        private float intensity = 0.0f;
+        private float relativeWidth = 1.0f;
+        private float relativeHeight = 1.0f;
+        private float tilt = 20;
+
+        private ShimmerHelper.HighlightMode highlightMode = ShimmerHelper.HighlightMode.MASK;
+        private int highlightColor = Color.WHITE;
+
+        public Builder() {
+        }
+
+        private Builder(ShimmerConfig config) {
+            autoStart = config.autoStart;
+            baseAlpha = config.baseAlpha;
+            duration = config.duration;
+            repeatCount = config.repeatCount;
+            repeatDelay = config.repeatDelay;
+            repeatMode = config.repeatMode;
+            angle = config.angle;
+            shape = config.shape;
+            dropoff = config.dropoff;
+            fixedWidth = config.fixedWidth;
+            fixedHeight = config.fixedHeight;
+            intensity = config.intensity;
+            relativeWidth = config.relativeWidth;
+            relativeHeight = config.relativeHeight;
+            tilt = config.tilt;
+            highlightMode = config.highlightMode;
+            highlightColor = config.highlightColor;
+        }
+
+        public Builder setAutoStart(boolean autoStart) {
+            this.autoStart = autoStart;
+            return this;
+        }
+
+        public Builder setBaseAlpha(float baseAlpha) {
+            this.baseAlpha = baseAlpha;
+            return this;
+        }
+
+        public Builder setDuration(int duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        public Builder setRepeatCount(int repeatCount) {
+            this.repeatCount = repeatCount;
+            return this;
+        }
+
+        public Builder setRepeatDelay(int repeatDelay) {
+            this.repeatDelay = repeatDelay;
+            return this;
+        }
+
+        public Builder setRepeatMode(int repeatMode) {
+            this.repeatMode = repeatMode;
+            return this;
+        }
+
+        public Builder setAngle(ShimmerHelper.MaskAngle angle) {
+            this.angle = angle;
+            return this;
+        }
+
+        public Builder setShape(ShimmerHelper.MaskShape shape) {
+            this.shape = shape;
+            return this;
+        }
+
+        public Builder setDropoff(float dropoff) {
+            this.dropoff = dropoff;
+            return this;
+        }
+
+        public Builder setFixedWidth(int fixedWidth) {
+            this.fixedWidth = fixedWidth;
+            return this;
+        }
+
+        public Builder setFixedHeight(int fixedHeight) {
+            this.fixedHeight = fixedHeight;
+            return this;
+        }
+
+        public Builder setIntensity(float intensity) {
+            this.intensity = intensity;
+            return this;
+        }
+
+        public Builder setRelativeWidth(float relativeWidth) {
+            this.relativeWidth = relativeWidth;
+            return this;
+        }
+
+        public Builder setRelativeHeight(float relativeHeight) {
+            this.relativeHeight = relativeHeight;
+            return this;
+        }
+
+        public Builder setTilt(float tilt) {
+            this.tilt = tilt;
+            return this;
+        }
+
+        public Builder setHighlightMode(ShimmerHelper.HighlightMode highlightMode) {
+            this.highlightMode = highlightMode;
+            return this;
+        }
+
+        public Builder setHighlightColor(int highlightColor) {
+            this.highlightColor = highlightColor;
+            return this;
+        }
+
+        public ShimmerConfig build() {
+            return new ShimmerConfig(this);
+        }
+    }
+}
@@ -4,14 +4,18 @@ package com.sxw.shimmerlayout.shimmer;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 
 public class ShimmerFrameLayout extends FrameLayout implements ShimmerCallBack {
 
-    private ShimmerHelper mShimmerHelper;
+    private final ShimmerHelper mShimmerHelper;
     private ViewTreeObserver.OnGlobalLayoutListener mOnGlobalLayoutListener;
+    private ViewTreeObserver.OnScrollChangedListener mOnScrollChangedListener;
+    private boolean mScrollChangedListenerRegistered;
     public ShimmerFrameLayout(Context context) {
         this(context, null, 0);
     }
@@ -29,11 +33,18 @@ public class ShimmerFrameLayout extends FrameLayout implements ShimmerCallBack {
 
     @Override
     protected void dispatchDraw(Canvas canvas) {
-        if (!mShimmerHelper.isAnimationStarted() || getWidth() <= 0 || getHeight() <= 0) {
+        mShimmerHelper.applyPendingConfig();
+        if (!mShimmerHelper.isAnimationStarted() || getWidth() <= 0 || getHeight() <= 0
+                || mShimmerHelper.yieldToCoveringAncestor()) {
             super.dispatchDraw(canvas);
             return;
         }
-        mShimmerHelper.dispatchDrawUsingBitmap(canvas);
+        mShimmerHelper.dispatchDrawShimmer(canvas);
+    }
+
+    @Override
+    public ShimmerHelper getShimmerHelper() {
+        return mShimmerHelper;
     }
 
     @Override
@@ -46,11 +57,21 @@ public class ShimmerFrameLayout extends FrameLayout implements ShimmerCallBack {
         return getHeight();
     }
 
+    @Override
+    public int getViewId() {
+        return getId();
+    }
+
     @Override
     public void doInvalidate() {
         invalidate();
     }
 
+    @Override
+    public void doPostInvalidate() {
+        postInvalidate();
+    }
+
     @Override
     public void startAnimation() {
         if (mShimmerHelper != null) {
@@ -67,17 +88,57 @@ public class ShimmerFrameLayout extends FrameLayout implements ShimmerCallBack {
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        if (mOnGlobalLayoutListener == null) {
-            mOnGlobalLayoutListener = getLayoutListener();
+        mShimmerHelper.onAttachedToWindow(this);
+        if (mShimmerHelper.isAutoStart() && !mShimmerHelper.isAnimationStarted()) {
+            if (mOnGlobalLayoutListener == null) {
+                mOnGlobalLayoutListener = getLayoutListener();
+            }
+            getViewTreeObserver().addOnGlobalLayoutListener(mOnGlobalLayoutListener);
+        }
+        updateScrollChangedListener(mShimmerHelper.isAnimationStarted());
+    }
+
+    @Override
+    public void onShimmerStateChanged(boolean started) {
+        updateScrollChangedListener(started);
+    }
+
+    // Only a running shimmer freezes while scrolled, so idle containers stay out of the window's
+    // scroll dispatch
+    private void updateScrollChangedListener(boolean started) {
+        boolean register = started && mShimmerHelper != null && mShimmerHelper.isAttached();
+        if (register == mScrollChangedListenerRegistered) {
+            return;
+        }
+        if (mOnScrollChangedListener == null) {
+            mOnScrollChangedListener = getScrollChangedListener();
         }
-        getViewTreeObserver().addOnGlobalLayoutListener(mOnGlobalLayoutListener);
+        if (register) {
+            getViewTreeObserver().addOnScrollChangedListener(mOnScrollChangedListener);
+        } else {
+            getViewTreeObserver().removeOnScrollChangedListener(mOnScrollChangedListener);
+        }
+        mScrollChangedListenerRegistered = register;
+    }
+
+    private ViewTreeObserver.OnScrollChangedListener getScrollChangedListener() {
+        return new ViewTreeObserver.OnScrollChangedListener() {
+            @Override
+            public void onScrollChanged() {
+                mShimmerHelper.notifyScrollChanged(ShimmerFrameLayout.this);
+            }
+        };
     }
 
     private ViewTreeObserver.OnGlobalLayoutListener getLayoutListener() {
         return new ViewTreeObserver.OnGlobalLayoutListener() {
             @Override
             public void onGlobalLayout() {
+                if (getWidth() <= 0 || getHeight() <= 0) {
+                    return;
+                }
                 startAnimation();
+                getViewTreeObserver().removeOnGlobalLayoutListener(this);
             }
         };
     }
@@ -85,9 +146,31 @@ public class ShimmerFrameLayout extends FrameLayout implements ShimmerCallBack {
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        mShimmerHelper.onDetachedFromWindow();
         if (mOnGlobalLayoutListener != null) {
             getViewTreeObserver().removeOnGlobalLayoutListener(mOnGlobalLayoutListener);
         }
+        updateScrollChangedListener(false);
+        mShimmerHelper.retainResourcesIfChangingConfigurations(getContext());
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        ShimmerSavedState savedState = new ShimmerSavedState(super.onSaveInstanceState());
+        savedState.playTime = mShimmerHelper.getAnimationPlayTime();
+        savedState.savedAtUptime = SystemClock.uptimeMillis();
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof ShimmerSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        ShimmerSavedState savedState = (ShimmerSavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        mShimmerHelper.restoreAnimationPlayTime(savedState.getResumePlayTime());
     }
     @Override
     public void superDispatchDraw(Canvas canvas) {
@@ -1,10 +1,9 @@
 package com.sxw.shimmerlayout.shimmer;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
+import android.app.Activity;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.content.ContextWrapper;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
@@ -13,11 +12,18 @@ import android.graphics.Paint;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
 import android.graphics.RadialGradient;
+import android.graphics.Rect;
 import android.graphics.Shader;
+import android.os.Build;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.View;
+import android.view.ViewParent;
 
-import com.sxw.shimmerlayout.R;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -26,6 +32,9 @@ import com.sxw.shimmerlayout.R;
 public class ShimmerHelper {
     private static final String TAG = "ShimmerHelper";
     private static final PorterDuffXfermode DST_IN_PORTER_DUFF_XFERMODE = new PorterDuffXfermode(PorterDuff.Mode.DST_IN);
+    // how long after the last scroll event the tree is considered to be still scrolling
+    private static final long SCROLL_SETTLE_DELAY = 100;
+    private static final PorterDuffXfermode SRC_ATOP_PORTER_DUFF_XFERMODE = new PorterDuffXfermode(PorterDuff.Mode.SRC_ATOP);
 
     public enum MaskShape {
         LINEAR,
@@ -39,6 +48,11 @@ public class ShimmerHelper {
         CW_270, // bottom to top
     }
 
+    public enum HighlightMode {
+        MASK, // children drawn dimmed, then again at full opacity through the moving mask
+        COLOR // children drawn once, then tinted by the moving gradient in the highlight color
+    }
+
     private static class Mask {
 
         public MaskAngle angle;
@@ -65,12 +79,23 @@ public class ShimmerHelper {
          * @return An array of black and transparent colors
          */
         public int[] getGradientColors() {
+            return getGradientColors(Color.BLACK);
+        }
+
+        /**
+         * Same as {@link #getGradientColors()}, with the opaque stops in the given color and the
+         * transparent ones in the same color at zero alpha, so the dropoff does not fade through grey
+         *
+         * @return An array of the given color and its transparent counterpart
+         */
+        public int[] getGradientColors(int color) {
+            int transparent = color & 0x00ffffff;
             switch (shape) {
                 default:
                 case LINEAR:
-                    return new int[]{Color.TRANSPARENT, Color.BLACK, Color.BLACK, Color.TRANSPARENT};
+                    return new int[]{transparent, color, color, transparent};
                 case RADIAL:
-                    return new int[]{Color.BLACK, Color.BLACK, Color.TRANSPARENT};
+                    return new int[]{color, color, transparent};
             }
         }
 
@@ -113,193 +138,377 @@ public class ShimmerHelper {
         }
     }
 
+    /**
+     * Counters of the expensive work done by the render path, used to compare rewrites of
+     * {@link #dispatchDrawUsingBitmap(Canvas)} frame by frame. Only the helper updates them; they
+     * are plain int increments, cheap enough to keep on the production draw path.
+     */
+    public static final class RenderStats {
+
+        private int frames;
+        private int superDispatchDraws;
+        private int invalidations;
+        private int bitmapAllocations;
+
+        private RenderStats() {
+        }
+
+        public int getFrames() {
+            return frames;
+        }
+
+        public int getSuperDispatchDraws() {
+            return superDispatchDraws;
+        }
+
+        public int getInvalidations() {
+            return invalidations;
+        }
+
+        public int getBitmapAllocations() {
+            return bitmapAllocations;
+        }
+
+        public void reset() {
+            frames = 0;
+            superDispatchDraws = 0;
+            invalidations = 0;
+            bitmapAllocations = 0;
+        }
+
+        @Override
+        public String toString() {
+            return "RenderStats{frames=" + frames
+                    + ", superDispatchDraws=" + superDispatchDraws
+                    + ", invalidations=" + invalidations
+                    + ", bitmapAllocations=" + bitmapAllocations + "}";
+        }
+    }
+
     private Paint mAlphaPaint;
     private Paint mMaskPaint;
+    private Paint mHighlightPaint;
 
     private Mask mMask;
+    private Rect mSweepRect;
+    private Rect mClipBounds;
     private MaskTranslation mMaskTranslation;
 
     private Bitmap mRenderMaskBitmap;
     private Bitmap mRenderUnmaskBitmap;
 
+    // configuration installed on the UI thread
+    private ShimmerConfig mConfig;
+    // latest configuration published from any thread, installed at the next frame when it
+    // differs from mConfig
+    private final AtomicReference<ShimmerConfig> mLatestConfig = new AtomicReference<>();
     private boolean mAutoStart;
+    private float mBaseAlpha;
     private int mDuration;
     private int mRepeatCount;
     private int mRepeatDelay;
     private int mRepeatMode;
 
+    private HighlightMode mHighlightMode;
+    private int mHighlightColor;
+    private int mHighlightShaderWidth;
+    private int mHighlightShaderHeight;
+    private int mMaskShaderWidth;
+    private int mMaskShaderHeight;
+
     private int mMaskOffsetX;
     private int mMaskOffsetY;
 
     private boolean mAnimationStarted;
+    // play time to resume the next started animation at, or -1
+    private long mPendingPlayTime = -1;
+    private long mLastScrollUptime = -SCROLL_SETTLE_DELAY;
+    // position of the container in its window at the last scroll event, to tell whether it moved
+    private int[] mWindowLocation;
+    private boolean mHasWindowLocation;
+    // play time at which the sweep was frozen by scrolling, or -1
+    private long mFrozenPlayTime = -1;
 
     protected ValueAnimator mAnimator;
     protected Bitmap mMaskBitmap;
-    private ShimmerCallBack mShimmerCallBack;
+    private final ShimmerCallBack mShimmerCallBack;
+    // helper of the nearest shimmer container above this one, while attached
+    private ShimmerHelper mAncestorHelper;
+    // descendants that released their bitmaps and paused their animator while this helper
+    // shimmers over them, resumed when it stops
+    private List<ShimmerHelper> mCoveredHelpers;
+    private boolean mYielded;
+    private long mYieldedPlayTime;
+    private boolean mAttached;
+    private final RenderStats mRenderStats = new RenderStats();
 
     public boolean isAnimationStarted() {
         return mAnimationStarted;
     }
 
+    public RenderStats getRenderStats() {
+        return mRenderStats;
+    }
+
+    /**
+     * Only the parsed configuration is kept here; paints, mask and translation are created by
+     * {@link #ensureResources()} the first time the shimmer is actually drawn or started, so a
+     * container whose content arrives before it ever shimmers stays as cheap as a plain layout
+     */
     public ShimmerHelper(ShimmerCallBack mShimmerCallBack, Context context, AttributeSet attrs) {
         this.mShimmerCallBack = mShimmerCallBack;
+        applyConfig(ShimmerConfig.obtain(context, attrs));
+        ShimmerRegistry.register(this);
+    }
+
+    private void ensureResources() {
+        if (mMask != null) {
+            return;
+        }
         mMask = new Mask();
+        mSweepRect = new Rect();
+        mClipBounds = new Rect();
+        mMaskTranslation = new MaskTranslation();
         mAlphaPaint = new Paint();
+        mAlphaPaint.setAlpha((int) (clamp(0, 1, mBaseAlpha) * 0xff));
         mMaskPaint = new Paint();
         mMaskPaint.setAntiAlias(true);
         mMaskPaint.setDither(true);
         mMaskPaint.setFilterBitmap(true);
         mMaskPaint.setXfermode(DST_IN_PORTER_DUFF_XFERMODE);
-        useDefaults();
+        mHighlightPaint = new Paint();
+        mHighlightPaint.setAntiAlias(true);
+        mHighlightPaint.setDither(true);
+        mHighlightPaint.setXfermode(SRC_ATOP_PORTER_DUFF_XFERMODE);
+        applyMaskConfig();
+    }
 
-        if (attrs != null) {
-            TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.ShimmerFrameLayout, 0, 0);
-            try {
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_auto_start)) {
-                    setAutoStart(a.getBoolean(R.styleable.ShimmerFrameLayout_auto_start, false));
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_base_alpha)) {
-                    setBaseAlpha(a.getFloat(R.styleable.ShimmerFrameLayout_base_alpha, 0));
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_duration)) {
-                    setDuration(a.getInt(R.styleable.ShimmerFrameLayout_duration, 0));
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_repeat_count)) {
-                    setRepeatCount(a.getInt(R.styleable.ShimmerFrameLayout_repeat_count, 0));
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_repeat_delay)) {
-                    setRepeatDelay(a.getInt(R.styleable.ShimmerFrameLayout_repeat_delay, 0));
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_repeat_mode)) {
-                    setRepeatMode(a.getInt(R.styleable.ShimmerFrameLayout_repeat_mode, 0));
-                }
+    public void useDefaults() {
+        applyConfig(ShimmerConfig.getDefault());
+    }
 
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_angle)) {
-                    int angle = a.getInt(R.styleable.ShimmerFrameLayout_angle, 0);
-                    switch (angle) {
-                        default:
-                        case 0:
-                            mMask.angle = MaskAngle.CW_0;
-                            break;
-                        case 90:
-                            mMask.angle = MaskAngle.CW_90;
-                            break;
-                        case 180:
-                            mMask.angle = MaskAngle.CW_180;
-                            break;
-                        case 270:
-                            mMask.angle = MaskAngle.CW_270;
-                            break;
-                    }
-                }
+    /**
+     * Publish and install the given configuration right away; must be called on the UI thread
+     */
+    public void applyConfig(final ShimmerConfig config) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return config;
+            }
+        });
+    }
 
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_shape)) {
-                    int shape = a.getInt(R.styleable.ShimmerFrameLayout_shape, 0);
-                    switch (shape) {
-                        default:
-                        case 0:
-                            mMask.shape = MaskShape.LINEAR;
-                            break;
-                        case 1:
-                            mMask.shape = MaskShape.RADIAL;
-                            break;
-                    }
-                }
+    interface ConfigUpdate {
+        ShimmerConfig apply(ShimmerConfig current);
+    }
 
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_dropoff)) {
-                    mMask.dropoff = a.getFloat(R.styleable.ShimmerFrameLayout_dropoff, 0);
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_fixed_width)) {
-                    mMask.fixedWidth = a.getDimensionPixelSize(R.styleable.ShimmerFrameLayout_fixed_width, 0);
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_fixed_height)) {
-                    mMask.fixedHeight = a.getDimensionPixelSize(R.styleable.ShimmerFrameLayout_fixed_height, 0);
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_intensity)) {
-                    mMask.intensity = a.getFloat(R.styleable.ShimmerFrameLayout_intensity, 0);
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_relative_width)) {
-                    mMask.relativeWidth = a.getFloat(R.styleable.ShimmerFrameLayout_relative_width, 0);
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_relative_height)) {
-                    mMask.relativeHeight = a.getFloat(R.styleable.ShimmerFrameLayout_relative_height, 0);
-                }
-                if (a.hasValue(R.styleable.ShimmerFrameLayout_tilt)) {
-                    mMask.tilt = a.getFloat(R.styleable.ShimmerFrameLayout_tilt, 0);
-                }
-            } finally {
-                a.recycle();
-            }
+    /**
+     * Publish the update of the latest configuration with a compare-and-set, re-applying it if
+     * another thread published in between, then install exactly what was published. A concurrent
+     * {@link #compareAndSetConfig(ShimmerConfig, ShimmerConfig)} that succeeded is therefore
+     * built upon rather than overwritten. Must be called on the UI thread.
+     */
+    void updateConfig(ConfigUpdate update) {
+        ShimmerConfig current;
+        ShimmerConfig updated;
+        do {
+            current = mLatestConfig.get();
+            updated = update.apply(current);
+        } while (!mLatestConfig.compareAndSet(current, updated));
+        installConfig(updated);
+    }
+
+    /**
+     * Copy every parameter of the given configuration, resetting the animation and bitmaps once
+     * rather than once per parameter
+     */
+    private void installConfig(ShimmerConfig config) {
+        mConfig = config;
+        mAutoStart = config.autoStart;
+        mDuration = config.duration;
+        mRepeatCount = config.repeatCount;
+        mRepeatDelay = config.repeatDelay;
+        mRepeatMode = config.repeatMode;
+        mHighlightMode = config.highlightMode;
+        mHighlightColor = config.highlightColor;
+        mBaseAlpha = config.baseAlpha;
+        if (mAlphaPaint != null) {
+            mAlphaPaint.setAlpha((int) (clamp(0, 1, mBaseAlpha) * 0xff));
+        }
+        if (mMask != null) {
+            applyMaskConfig();
         }
 
+        resetAll();
     }
 
-    public void useDefaults() {
-        // Set defaults
-        setAutoStart(false);
-        setDuration(1000);
-        setRepeatCount(ObjectAnimator.INFINITE);
-        setRepeatDelay(0);
-        setRepeatMode(ObjectAnimator.RESTART);
-
-        mMask.angle = MaskAngle.CW_0;
-        mMask.shape = MaskShape.LINEAR;
-        mMask.dropoff = 0.5f;
-        mMask.fixedWidth = 0;
-        mMask.fixedHeight = 0;
-        mMask.intensity = 0.0f;
-        mMask.relativeWidth = 1.0f;
-        mMask.relativeHeight = 1.0f;
-        mMask.tilt = 20;
+    /**
+     * Get the latest configuration, including one posted but not yet installed
+     */
+    public ShimmerConfig getConfig() {
+        return mLatestConfig.get();
+    }
 
-        mMaskTranslation = new MaskTranslation();
+    ShimmerConfig getInstalledConfig() {
+        return mConfig;
+    }
 
-        setBaseAlpha(0.3f);
+    /**
+     * Publish a new configuration from any thread. The UI thread swaps it in at the start of its
+     * next frame, where no bitmap of the previous configuration is being drawn, and keeps the
+     * running animation at its current play time. Only the latest published configuration is
+     * installed; use {@link #compareAndSetConfig(ShimmerConfig, ShimmerConfig)} to update it
+     * without losing a concurrent change.
+     */
+    public void postConfig(ShimmerConfig config) {
+        mLatestConfig.set(config);
+        mShimmerCallBack.doPostInvalidate();
+    }
 
-        resetAll();
+    /**
+     * Publish a configuration derived from {@code expect} from any thread, only if no other
+     * configuration was published since {@code expect} was read with {@link #getConfig()}:
+     * <pre>
+     * ShimmerConfig current;
+     * do {
+     *     current = helper.getConfig();
+     * } while (!helper.compareAndSetConfig(current, current.buildUpon().setDuration(2000).build()));
+     * </pre>
+     *
+     * @return false if the latest configuration is no longer {@code expect} and nothing was published
+     */
+    public boolean compareAndSetConfig(ShimmerConfig expect, ShimmerConfig update) {
+        if (!mLatestConfig.compareAndSet(expect, update)) {
+            return false;
+        }
+        mShimmerCallBack.doPostInvalidate();
+        return true;
+    }
+
+    /**
+     * Install the configuration published by {@link #postConfig(ShimmerConfig)} or
+     * {@link #compareAndSetConfig(ShimmerConfig, ShimmerConfig)}, if any. Must be called on the UI
+     * thread, before drawing.
+     */
+    public void applyPendingConfig() {
+        ShimmerConfig config = mLatestConfig.get();
+        if (config == mConfig) {
+            return;
+        }
+        boolean wasStarted = mAnimationStarted;
+        long playTime = getAnimationPlayTime();
+        installConfig(config);
+        if (wasStarted) {
+            restoreAnimationPlayTime(playTime);
+            startShimmerAnimation();
+        }
+    }
+
+    private void applyMaskConfig() {
+        mMask.angle = mConfig.angle;
+        mMask.shape = mConfig.shape;
+        mMask.dropoff = mConfig.dropoff;
+        mMask.fixedWidth = mConfig.fixedWidth;
+        mMask.fixedHeight = mConfig.fixedHeight;
+        mMask.intensity = mConfig.intensity;
+        mMask.relativeWidth = mConfig.relativeWidth;
+        mMask.relativeHeight = mConfig.relativeHeight;
+        mMask.tilt = mConfig.tilt;
     }
 
     public boolean isAutoStart() {
         return mAutoStart;
     }
 
-    public void setAutoStart(boolean autoStart) {
-        mAutoStart = autoStart;
-        resetAll();
+    // The setters run on the UI thread and build on the latest published configuration, so a
+    // configuration posted from another thread, even in the middle of the setter, is kept and not
+    // overwritten
+    public void setAutoStart(final boolean autoStart) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setAutoStart(autoStart).build();
+            }
+        });
     }
 
-    public void setDuration(int duration) {
-        mDuration = duration;
-        resetAll();
+    public void setDuration(final int duration) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setDuration(duration).build();
+            }
+        });
     }
 
-    public void setRepeatCount(int repeatCount) {
-        mRepeatCount = repeatCount;
-        resetAll();
+    public void setRepeatCount(final int repeatCount) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setRepeatCount(repeatCount).build();
+            }
+        });
     }
 
-    public void setRepeatDelay(int repeatDelay) {
-        mRepeatDelay = repeatDelay;
-        resetAll();
+    public void setRepeatDelay(final int repeatDelay) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setRepeatDelay(repeatDelay).build();
+            }
+        });
     }
 
-    public void setRepeatMode(int repeatMode) {
-        mRepeatMode = repeatMode;
-        resetAll();
+    public void setRepeatMode(final int repeatMode) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setRepeatMode(repeatMode).build();
+            }
+        });
     }
 
-    public void setBaseAlpha(float alpha) {
-        mAlphaPaint.setAlpha((int) (clamp(0, 1, alpha) * 0xff));
-        resetAll();
+    public void setBaseAlpha(final float alpha) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setBaseAlpha(alpha).build();
+            }
+        });
+    }
+
+    public HighlightMode getHighlightMode() {
+        return mHighlightMode;
+    }
+
+    public void setHighlightMode(final HighlightMode highlightMode) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setHighlightMode(highlightMode).build();
+            }
+        });
+    }
+
+    public void setHighlightColor(final int highlightColor) {
+        updateConfig(new ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(ShimmerConfig current) {
+                return current.buildUpon().setHighlightColor(highlightColor).build();
+            }
+        });
     }
 
     public void resetAll() {
         stopShimmerAnimation();
         resetMaskBitmap();
         resetRenderedView();
+        resetShaders();
     }
 
     public void stopShimmerAnimation() {
+        boolean wasStarted = mAnimationStarted;
         if (mAnimator != null) {
             mAnimator.end();
             mAnimator.removeAllUpdateListeners();
@@ -307,6 +516,12 @@ public class ShimmerHelper {
         }
         mAnimator = null;
         mAnimationStarted = false;
+        mFrozenPlayTime = -1;
+        mYielded = false;
+        if (wasStarted) {
+            mShimmerCallBack.onShimmerStateChanged(false);
+        }
+        resumeCoveredHelpers();
     }
 
     private void resetMaskBitmap() {
@@ -316,6 +531,19 @@ public class ShimmerHelper {
         }
     }
 
+    private void resetShaders() {
+        if (mMaskPaint != null) {
+            mMaskPaint.setShader(null);
+        }
+        if (mHighlightPaint != null) {
+            mHighlightPaint.setShader(null);
+        }
+        mMaskShaderWidth = 0;
+        mMaskShaderHeight = 0;
+        mHighlightShaderWidth = 0;
+        mHighlightShaderHeight = 0;
+    }
+
     private void resetRenderedView() {
         if (mRenderUnmaskBitmap != null) {
             mRenderUnmaskBitmap.recycle();
@@ -332,12 +560,82 @@ public class ShimmerHelper {
         return Math.min(max, Math.max(min, value));
     }
 
+    /**
+     * Draw the children with the shimmer of the current highlight mode
+     *
+     * @return false if the working bitmaps could not be allocated and nothing was drawn
+     */
+    public boolean dispatchDrawShimmer(Canvas canvas) {
+        if (mHighlightMode == HighlightMode.COLOR) {
+            dispatchDrawUsingHighlight(canvas);
+            return true;
+        }
+        return dispatchDrawUsingBitmap(canvas);
+    }
+
+    /**
+     * Draw the children once and tint the already drawn pixels with the moving gradient, which
+     * needs neither the mask bitmap nor the two render bitmaps. The layer is bounded to the visible
+     * part of the view, and only the sweep is tinted.
+     */
+    public void dispatchDrawUsingHighlight(Canvas canvas) {
+        ensureResources();
+        int width = mShimmerCallBack.getViewWidth();
+        int height = mShimmerCallBack.getViewHeight();
+        int maskWidth = mMask.maskWidth(width);
+        int maskHeight = mMask.maskHeight(height);
+        mRenderStats.frames++;
+        mSweepRect.set(mMaskOffsetX, mMaskOffsetY, mMaskOffsetX + maskWidth, mMaskOffsetY + maskHeight);
+        if (maskWidth <= 0 || maskHeight <= 0
+                || !mSweepRect.intersect(0, 0, width, height)
+                || !canvas.getClipBounds(mClipBounds)
+                || !mClipBounds.intersect(0, 0, width, height)
+                || !Rect.intersects(mSweepRect, mClipBounds)) {
+            mRenderStats.superDispatchDraws++;
+            mShimmerCallBack.superDispatchDraw(canvas);
+            return;
+        }
+        updateHighlightShader(maskWidth, maskHeight);
+
+        int saveCount = saveLayer(canvas, mClipBounds);
+        mRenderStats.superDispatchDraws++;
+        mShimmerCallBack.superDispatchDraw(canvas);
+
+        canvas.clipRect(mSweepRect);
+        canvas.translate(mMaskOffsetX, mMaskOffsetY);
+        canvas.rotate(mMask.tilt, maskWidth / 2, maskHeight / 2);
+        int padding = getTiltPadding(maskWidth, maskHeight);
+        canvas.drawRect(-padding, -padding, maskWidth + padding, maskHeight + padding, mHighlightPaint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int saveLayer(Canvas canvas, Rect bounds) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return canvas.saveLayer(bounds.left, bounds.top, bounds.right, bounds.bottom, null);
+        }
+        return canvas.saveLayer(bounds.left, bounds.top, bounds.right, bounds.bottom, null, Canvas.ALL_SAVE_FLAG);
+    }
+
+    private void updateHighlightShader(int maskWidth, int maskHeight) {
+        if (mHighlightPaint.getShader() != null
+                && mHighlightShaderWidth == maskWidth
+                && mHighlightShaderHeight == maskHeight) {
+            return;
+        }
+        mHighlightPaint.setShader(createMaskShader(maskWidth, maskHeight, mMask.getGradientColors(mHighlightColor)));
+        mHighlightShaderWidth = maskWidth;
+        mHighlightShaderHeight = maskHeight;
+    }
+
     public boolean dispatchDrawUsingBitmap(Canvas canvas) {
+        ensureResources();
         Bitmap unmaskBitmap = tryObtainRenderUnmaskBitmap();
         Bitmap maskBitmap = tryObtainRenderMaskBitmap();
         if (unmaskBitmap == null || maskBitmap == null) {
             return false;
         }
+        mRenderStats.frames++;
         // First draw a desaturated version
         drawUnmasked(new Canvas(unmaskBitmap));
         canvas.drawBitmap(unmaskBitmap, 0, 0, mAlphaPaint);
@@ -350,10 +648,15 @@ public class ShimmerHelper {
     }
 
     private void drawUnmasked(Canvas renderCanvas) {
+        mRenderStats.superDispatchDraws++;
         mShimmerCallBack.superDispatchDraw(renderCanvas);
     }
 
     private void drawMasked(Canvas renderCanvas) {
+        if (mMask.shape == MaskShape.LINEAR) {
+            drawMaskedUsingShader(renderCanvas);
+            return;
+        }
         Bitmap maskBitmap = getMaskBitmap();
         if (maskBitmap == null) {
             return;
@@ -364,12 +667,54 @@ public class ShimmerHelper {
                 mMaskOffsetY,
                 mMaskOffsetX + maskBitmap.getWidth(),
                 mMaskOffsetY + maskBitmap.getHeight());
+        mRenderStats.superDispatchDraws++;
         mShimmerCallBack.superDispatchDraw(renderCanvas);
 
         renderCanvas.drawBitmap(maskBitmap, mMaskOffsetX, mMaskOffsetY, mMaskPaint);
     }
 
+    /**
+     * A linear mask only varies along one axis before the tilt, so instead of rasterizing it into
+     * a view-sized bitmap, the repeating gradient is applied straight from the shader with the same
+     * clip, offset and tilt that {@link #getMaskBitmap()} would use
+     */
+    private void drawMaskedUsingShader(Canvas renderCanvas) {
+        int width = mMask.maskWidth(mShimmerCallBack.getViewWidth());
+        int height = mMask.maskHeight(mShimmerCallBack.getViewHeight());
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        updateMaskShader(width, height);
+
+        renderCanvas.clipRect(
+                mMaskOffsetX,
+                mMaskOffsetY,
+                mMaskOffsetX + width,
+                mMaskOffsetY + height);
+        mRenderStats.superDispatchDraws++;
+        mShimmerCallBack.superDispatchDraw(renderCanvas);
+
+        renderCanvas.translate(mMaskOffsetX, mMaskOffsetY);
+        renderCanvas.rotate(mMask.tilt, width / 2, height / 2);
+        int padding = getTiltPadding(width, height);
+        renderCanvas.drawRect(-padding, -padding, width + padding, height + padding, mMaskPaint);
+    }
+
+    private void updateMaskShader(int maskWidth, int maskHeight) {
+        if (mMaskPaint.getShader() != null
+                && mMaskShaderWidth == maskWidth
+                && mMaskShaderHeight == maskHeight) {
+            return;
+        }
+        mMaskPaint.setShader(createMaskShader(maskWidth, maskHeight, mMask.getGradientColors()));
+        mMaskShaderWidth = maskWidth;
+        mMaskShaderHeight = maskHeight;
+    }
+
     public Bitmap tryObtainRenderUnmaskBitmap() {
+        if (mRenderUnmaskBitmap == null) {
+            mRenderUnmaskBitmap = tryObtainRetainedBitmap("unmask");
+        }
         if (mRenderUnmaskBitmap == null) {
             mRenderUnmaskBitmap = tryCreateRenderBitmap();
         }
@@ -377,16 +722,33 @@ public class ShimmerHelper {
     }
 
     public Bitmap tryObtainRenderMaskBitmap() {
+        if (mRenderMaskBitmap == null) {
+            mRenderMaskBitmap = tryObtainRetainedBitmap("mask");
+        }
         if (mRenderMaskBitmap == null) {
             mRenderMaskBitmap = tryCreateRenderBitmap();
         }
         return mRenderMaskBitmap;
     }
 
+    private Bitmap tryObtainRetainedBitmap(String name) {
+        int viewId = mShimmerCallBack.getViewId();
+        if (viewId == View.NO_ID) {
+            return null;
+        }
+        Bitmap bitmap = ShimmerRetainedCache.take(ShimmerRetainedCache.key(viewId, name),
+                mShimmerCallBack.getViewWidth(), mShimmerCallBack.getViewHeight());
+        if (bitmap != null) {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        return bitmap;
+    }
+
     private Bitmap tryCreateRenderBitmap() {
         int width = mShimmerCallBack.getViewWidth();
         int height = mShimmerCallBack.getViewHeight();
         try {
+            mRenderStats.bitmapAllocations++;
             return createBitmapAndGcIfNecessary(width, height);
         } catch (OutOfMemoryError e) {
             String logMessage = "ShimmerFrameLayout failed to create working bitmap";
@@ -424,8 +786,25 @@ public class ShimmerHelper {
         int width = mMask.maskWidth(mShimmerCallBack.getViewWidth());
         int height = mMask.maskHeight(mShimmerCallBack.getViewHeight());
 
+        mRenderStats.bitmapAllocations++;
         mMaskBitmap = createBitmapAndGcIfNecessary(width, height);
         Canvas canvas = new Canvas(mMaskBitmap);
+        Shader gradient = createMaskShader(width, height, mMask.getGradientColors());
+        canvas.rotate(mMask.tilt, width / 2, height / 2);
+        Paint paint = new Paint();
+        paint.setShader(gradient);
+        int padding = getTiltPadding(width, height);
+        canvas.drawRect(-padding, -padding, width + padding, height + padding, paint);
+
+        return mMaskBitmap;
+    }
+
+    // We need to increase the rect size to account for the tilt
+    private static int getTiltPadding(int width, int height) {
+        return (int) (Math.sqrt(2) * Math.max(width, height)) / 2;
+    }
+
+    private Shader createMaskShader(int width, int height, int[] colors) {
         Shader gradient;
         switch (mMask.shape) {
             default:
@@ -463,7 +842,7 @@ public class ShimmerHelper {
                         new LinearGradient(
                                 x1, y1,
                                 x2, y2,
-                                mMask.getGradientColors(),
+                                colors,
                                 mMask.getGradientPositions(),
                                 Shader.TileMode.REPEAT);
                 break;
@@ -476,32 +855,94 @@ public class ShimmerHelper {
                                 x,
                                 y,
                                 (float) (Math.max(width, height) / Math.sqrt(2)),
-                                mMask.getGradientColors(),
+                                colors,
                                 mMask.getGradientPositions(),
                                 Shader.TileMode.REPEAT);
                 break;
             }
         }
-        canvas.rotate(mMask.tilt, width / 2, height / 2);
-        Paint paint = new Paint();
-        paint.setShader(gradient);
-        // We need to increase the rect size to account for the tilt
-        int padding = (int) (Math.sqrt(2) * Math.max(width, height)) / 2;
-        canvas.drawRect(-padding, -padding, width + padding, height + padding, paint);
-
-        return mMaskBitmap;
+        return gradient;
     }
 
     public void startShimmerAnimation() {
+        applyPendingConfig();
         if (mAnimationStarted) {
             return;
         }
-        Animator animator = getShimmerAnimation();
+        ensureResources();
+        ValueAnimator animator = getShimmerAnimation();
         animator.start();
+        if (mPendingPlayTime >= 0) {
+            animator.setCurrentPlayTime(mPendingPlayTime);
+            mPendingPlayTime = -1;
+        }
         mAnimationStarted = true;
+        mShimmerCallBack.onShimmerStateChanged(true);
+    }
+
+    /**
+     * @return The current play time of the running animation, the restored play time it will
+     * start at, or -1 if there is neither
+     */
+    public long getAnimationPlayTime() {
+        if (!mAnimationStarted || mAnimator == null) {
+            return mPendingPlayTime;
+        }
+        if (mYielded) {
+            return mYieldedPlayTime;
+        }
+        return mAnimator.getCurrentPlayTime();
+    }
+
+    /**
+     * Continue the animation at the given play time, now if it is running or else when it starts
+     */
+    public void restoreAnimationPlayTime(long playTime) {
+        if (playTime < 0) {
+            return;
+        }
+        if (mAnimationStarted && mYielded) {
+            mYieldedPlayTime = playTime;
+        } else if (mAnimationStarted && mAnimator != null) {
+            mAnimator.setCurrentPlayTime(playTime);
+        } else {
+            mPendingPlayTime = playTime;
+        }
+    }
+
+    /**
+     * Hand the render bitmaps over to the retained cache if the container is being detached
+     * because its activity is recreated for a configuration change
+     */
+    public void retainResourcesIfChangingConfigurations(Context context) {
+        int viewId = mShimmerCallBack.getViewId();
+        if (viewId == View.NO_ID || !isChangingConfigurations(context)) {
+            return;
+        }
+        retainBitmap(mRenderUnmaskBitmap, viewId, "unmask");
+        retainBitmap(mRenderMaskBitmap, viewId, "mask");
+        mRenderUnmaskBitmap = null;
+        mRenderMaskBitmap = null;
+    }
+
+    private static void retainBitmap(Bitmap bitmap, int viewId, String name) {
+        if (bitmap == null) {
+            return;
+        }
+        ShimmerRetainedCache.put(ShimmerRetainedCache.key(viewId, name), bitmap);
+    }
+
+    private static boolean isChangingConfigurations(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) {
+                return ((Activity) context).isChangingConfigurations();
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return false;
     }
 
-    private Animator getShimmerAnimation() {
+    private ValueAnimator getShimmerAnimation() {
         if (mAnimator != null) {
             return mAnimator;
         }
@@ -533,6 +974,26 @@ public class ShimmerHelper {
         mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
             public void onAnimationUpdate(ValueAnimator animation) {
+                if (isCoveredByAncestor()) {
+                    // The ancestor redraws this subtree with its own sweep on every tick
+                    return;
+                }
+                if (isScrolling()) {
+                    // Skip the invalidate so a scrolled container only has its existing display
+                    // list moved, and remember where the sweep stopped
+                    if (mFrozenPlayTime < 0) {
+                        mFrozenPlayTime = animation.getCurrentPlayTime();
+                    }
+                    return;
+                }
+                if (mFrozenPlayTime >= 0) {
+                    // Resume from the frozen phase rather than jumping ahead by the scroll duration,
+                    // this update is re-dispatched with the restored value
+                    long frozenPlayTime = mFrozenPlayTime;
+                    mFrozenPlayTime = -1;
+                    animation.setCurrentPlayTime(frozenPlayTime);
+                    return;
+                }
                 float value = Math.max(0.0f, Math.min(1.0f, (Float) animation.getAnimatedValue()));
                 setMaskOffsetX((int) (mMaskTranslation.fromX * (1 - value) + mMaskTranslation.toX * value));
                 setMaskOffsetY((int) (mMaskTranslation.fromY * (1 - value) + mMaskTranslation.toY * value));
@@ -541,11 +1002,161 @@ public class ShimmerHelper {
         return mAnimator;
     }
 
+    public void onAttachedToWindow(View view) {
+        mAttached = true;
+        mHasWindowLocation = false;
+        updateShimmerAncestor(view);
+    }
+
+    public void onDetachedFromWindow() {
+        mAttached = false;
+        if (mAncestorHelper != null && mAncestorHelper.mCoveredHelpers != null) {
+            mAncestorHelper.mCoveredHelpers.remove(this);
+        }
+        mAncestorHelper = null;
+    }
+
+    public boolean isAttached() {
+        return mAttached;
+    }
+
+    public boolean isAnimatorRunning() {
+        return mAnimator != null && mAnimator.isRunning();
+    }
+
+    /**
+     * @return The bytes held by the mask and render bitmaps that are not recycled
+     */
+    public long getHeldBitmapBytes() {
+        return getBitmapBytes(mMaskBitmap) + getBitmapBytes(mRenderMaskBitmap) + getBitmapBytes(mRenderUnmaskBitmap);
+    }
+
+    private static long getBitmapBytes(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return 0;
+        }
+        return (long) bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    String describe() {
+        int viewId = mShimmerCallBack.getViewId();
+        return mShimmerCallBack.getClass().getSimpleName()
+                + (viewId == View.NO_ID ? "" : "#" + Integer.toHexString(viewId))
+                + "@" + Integer.toHexString(System.identityHashCode(mShimmerCallBack));
+    }
+
+    // Look up the nearest shimmer container above the given one
+    private void updateShimmerAncestor(View view) {
+        mAncestorHelper = null;
+        ViewParent parent = view.getParent();
+        while (parent instanceof View) {
+            if (parent instanceof ShimmerCallBack) {
+                mAncestorHelper = ((ShimmerCallBack) parent).getShimmerHelper();
+                return;
+            }
+            parent = parent.getParent();
+        }
+    }
+
+    /**
+     * A shimmering ancestor already rasterizes this subtree into its own bitmaps, so drawing our
+     * own sweep inside it would stack offscreen passes and show two conflicting sweeps
+     *
+     * @return true if this container should draw its children plainly and leave the shimmer to
+     * the ancestor
+     */
+    public boolean isCoveredByAncestor() {
+        return mAncestorHelper != null && mAncestorHelper.isAnimationStarted();
+    }
+
+    /**
+     * Called by a started container before it draws. While a shimmering ancestor covers it, the
+     * render and mask bitmaps are released and the animator is paused at its play time, so the
+     * subtree is neither rasterized nor ticked twice; both come back when the ancestor stops or no
+     * longer covers it.
+     *
+     * @return true if the container should draw its children plainly
+     */
+    public boolean yieldToCoveringAncestor() {
+        if (!isCoveredByAncestor()) {
+            resumeAfterAncestor();
+            return false;
+        }
+        if (!mYielded) {
+            mYielded = true;
+            resetRenderedView();
+            resetMaskBitmap();
+            if (mAnimator != null) {
+                mYieldedPlayTime = mAnimator.getCurrentPlayTime();
+                mAnimator.cancel();
+            }
+            if (mAncestorHelper.mCoveredHelpers == null) {
+                mAncestorHelper.mCoveredHelpers = new ArrayList<>();
+            }
+            mAncestorHelper.mCoveredHelpers.add(this);
+        }
+        return true;
+    }
+
+    private boolean resumeAfterAncestor() {
+        if (!mYielded) {
+            return false;
+        }
+        mYielded = false;
+        if (mAnimationStarted && mAnimator != null) {
+            mAnimator.start();
+            mAnimator.setCurrentPlayTime(mYieldedPlayTime);
+        }
+        return true;
+    }
+
+    // The stopping ancestor may not redraw the covered containers, so wake them up here
+    private void resumeCoveredHelpers() {
+        if (mCoveredHelpers == null || mCoveredHelpers.isEmpty()) {
+            return;
+        }
+        List<ShimmerHelper> covered = new ArrayList<>(mCoveredHelpers);
+        mCoveredHelpers.clear();
+        for (ShimmerHelper helper : covered) {
+            if (helper.resumeAfterAncestor()) {
+                helper.mShimmerCallBack.doInvalidate();
+            }
+        }
+    }
+
+    /**
+     * Called when a scroll happened anywhere in the window of the container. Only a scroll that
+     * moved the container itself, i.e. one of its ancestors scrolled, freezes the sweep until
+     * scrolling has settled for {@link #SCROLL_SETTLE_DELAY} ms; scrolls of siblings or inside the
+     * container leave its position unchanged.
+     */
+    public void notifyScrollChanged(View view) {
+        if (!mAnimationStarted) {
+            mHasWindowLocation = false;
+            return;
+        }
+        if (mWindowLocation == null) {
+            mWindowLocation = new int[2];
+        }
+        int lastX = mWindowLocation[0];
+        int lastY = mWindowLocation[1];
+        view.getLocationInWindow(mWindowLocation);
+        if (mHasWindowLocation && (lastX != mWindowLocation[0] || lastY != mWindowLocation[1])) {
+            mLastScrollUptime = SystemClock.uptimeMillis();
+        }
+        mHasWindowLocation = true;
+    }
+
+    private boolean isScrolling() {
+        return SystemClock.uptimeMillis() - mLastScrollUptime < SCROLL_SETTLE_DELAY;
+    }
+
     public void setMaskOffsetX(int maskOffsetX) {
         if (mMaskOffsetX == maskOffsetX) {
             return;
         }
         mMaskOffsetX = maskOffsetX;
+        mRenderStats.invalidations++;
         mShimmerCallBack.doInvalidate();
     }
 
@@ -554,6 +1165,7 @@ public class ShimmerHelper {
             return;
         }
         mMaskOffsetY = maskOffsetY;
+        mRenderStats.invalidations++;
         mShimmerCallBack.doInvalidate();
     }
 }
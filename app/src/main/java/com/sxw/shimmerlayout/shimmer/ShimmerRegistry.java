@@ -0,0 +1,140 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Opt-in registry of live {@link ShimmerHelper}s, for debug builds and leak tests. Enable it before
+ * the containers are inflated; helpers are held in a weak set, so collected ones drop out on their
+ * own.
+ * Snapshots read the helpers' state and should be taken on the UI thread.
+ */
+public final class ShimmerRegistry {
+    private static final String TAG = "ShimmerRegistry";
+
+    private static volatile boolean sEnabled;
+    // ShimmerHelper keeps identity equality, so the weak keys behave as an identity set
+    private static final Set<ShimmerHelper> sHelpers =
+            Collections.newSetFromMap(new WeakHashMap<ShimmerHelper, Boolean>());
+
+    /**
+     * State of one helper at the time of the snapshot
+     */
+    public static final class Entry {
+
+        public final String name;
+        public final boolean started;
+        public final boolean attached;
+        public final boolean animatorRunning;
+        public final long bitmapBytes;
+
+        Entry(ShimmerHelper helper) {
+            name = helper.describe();
+            started = helper.isAnimationStarted();
+            attached = helper.isAttached();
+            animatorRunning = helper.isAnimatorRunning();
+            bitmapBytes = helper.getHeldBitmapBytes();
+        }
+
+        /**
+         * @return true if the container is detached but still holds bitmaps or a running animator
+         */
+        public boolean isSuspicious() {
+            return !attached && (bitmapBytes > 0 || animatorRunning);
+        }
+
+        @Override
+        public String toString() {
+            return name
+                    + (started ? " started" : " idle")
+                    + (attached ? " attached" : " detached")
+                    + (animatorRunning ? " animator=running" : " animator=stopped")
+                    + " bitmapBytes=" + bitmapBytes
+                    + (isSuspicious() ? " SUSPICIOUS" : "");
+        }
+    }
+
+    private ShimmerRegistry() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        if (!enabled) {
+            synchronized (sHelpers) {
+                sHelpers.clear();
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    static void register(ShimmerHelper helper) {
+        if (!sEnabled) {
+            return;
+        }
+        synchronized (sHelpers) {
+            sHelpers.add(helper);
+        }
+    }
+
+    /**
+     * @return The state of every helper still alive
+     */
+    public static List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (sHelpers) {
+            for (ShimmerHelper helper : sHelpers) {
+                if (helper != null) {
+                    entries.add(new Entry(helper));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return The helpers that are detached but still hold bitmaps or a running animator
+     */
+    public static List<Entry> findSuspicious() {
+        List<Entry> suspicious = new ArrayList<>();
+        for (Entry entry : snapshot()) {
+            if (entry.isSuspicious()) {
+                suspicious.add(entry);
+            }
+        }
+        return suspicious;
+    }
+
+    public static String dump() {
+        List<Entry> entries = snapshot();
+        int started = 0;
+        int attached = 0;
+        int suspicious = 0;
+        long bitmapBytes = 0;
+        StringBuilder builder = new StringBuilder();
+        for (Entry entry : entries) {
+            started += entry.started ? 1 : 0;
+            attached += entry.attached ? 1 : 0;
+            suspicious += entry.isSuspicious() ? 1 : 0;
+            bitmapBytes += entry.bitmapBytes;
+            builder.append("  ").append(entry).append('\n');
+        }
+        builder.insert(0, "live=" + entries.size()
+                + " started=" + started
+                + " attached=" + attached
+                + " suspicious=" + suspicious
+                + " bitmapBytes=" + bitmapBytes + "\n");
+        return builder.toString();
+    }
+
+    public static void logDump() {
+        Log.d(TAG, dump());
+    }
+}
@@ -4,13 +4,17 @@ package com.sxw.shimmerlayout.shimmer;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.ViewTreeObserver;
 import android.widget.RelativeLayout;
 
 public class ShimmerRelativeLayout extends RelativeLayout implements ShimmerCallBack {
-    private ShimmerHelper mShimmerHelper;
+    private final ShimmerHelper mShimmerHelper;
     private ViewTreeObserver.OnGlobalLayoutListener mOnGlobalLayoutListener;
+    private ViewTreeObserver.OnScrollChangedListener mOnScrollChangedListener;
+    private boolean mScrollChangedListenerRegistered;
 
     public ShimmerRelativeLayout(Context context) {
         this(context, null, 0);
@@ -30,17 +34,57 @@ public class ShimmerRelativeLayout extends RelativeLayout implements ShimmerCall
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        if (mOnGlobalLayoutListener == null) {
-            mOnGlobalLayoutListener = getLayoutListener();
+        mShimmerHelper.onAttachedToWindow(this);
+        if (mShimmerHelper.isAutoStart() && !mShimmerHelper.isAnimationStarted()) {
+            if (mOnGlobalLayoutListener == null) {
+                mOnGlobalLayoutListener = getLayoutListener();
+            }
+            getViewTreeObserver().addOnGlobalLayoutListener(mOnGlobalLayoutListener);
+        }
+        updateScrollChangedListener(mShimmerHelper.isAnimationStarted());
+    }
+
+    @Override
+    public void onShimmerStateChanged(boolean started) {
+        updateScrollChangedListener(started);
+    }
+
+    // Only a running shimmer freezes while scrolled, so idle containers stay out of the window's
+    // scroll dispatch
+    private void updateScrollChangedListener(boolean started) {
+        boolean register = started && mShimmerHelper != null && mShimmerHelper.isAttached();
+        if (register == mScrollChangedListenerRegistered) {
+            return;
         }
-        getViewTreeObserver().addOnGlobalLayoutListener(mOnGlobalLayoutListener);
+        if (mOnScrollChangedListener == null) {
+            mOnScrollChangedListener = getScrollChangedListener();
+        }
+        if (register) {
+            getViewTreeObserver().addOnScrollChangedListener(mOnScrollChangedListener);
+        } else {
+            getViewTreeObserver().removeOnScrollChangedListener(mOnScrollChangedListener);
+        }
+        mScrollChangedListenerRegistered = register;
+    }
+
+    private ViewTreeObserver.OnScrollChangedListener getScrollChangedListener() {
+        return new ViewTreeObserver.OnScrollChangedListener() {
+            @Override
+            public void onScrollChanged() {
+                mShimmerHelper.notifyScrollChanged(ShimmerRelativeLayout.this);
+            }
+        };
     }
 
     private ViewTreeObserver.OnGlobalLayoutListener getLayoutListener() {
         return new ViewTreeObserver.OnGlobalLayoutListener() {
             @Override
             public void onGlobalLayout() {
+                if (getWidth() <= 0 || getHeight() <= 0) {
+                    return;
+                }
                 startAnimation();
+                getViewTreeObserver().removeOnGlobalLayoutListener(this);
             }
         };
     }
@@ -48,18 +92,47 @@ public class ShimmerRelativeLayout extends RelativeLayout implements ShimmerCall
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        mShimmerHelper.onDetachedFromWindow();
         if (mOnGlobalLayoutListener != null) {
             getViewTreeObserver().removeOnGlobalLayoutListener(mOnGlobalLayoutListener);
         }
+        updateScrollChangedListener(false);
+        mShimmerHelper.retainResourcesIfChangingConfigurations(getContext());
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        ShimmerSavedState savedState = new ShimmerSavedState(super.onSaveInstanceState());
+        savedState.playTime = mShimmerHelper.getAnimationPlayTime();
+        savedState.savedAtUptime = SystemClock.uptimeMillis();
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof ShimmerSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        ShimmerSavedState savedState = (ShimmerSavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        mShimmerHelper.restoreAnimationPlayTime(savedState.getResumePlayTime());
     }
 
     @Override
     protected void dispatchDraw(Canvas canvas) {
-        if (!mShimmerHelper.isAnimationStarted() || getWidth() <= 0 || getHeight() <= 0) {
+        mShimmerHelper.applyPendingConfig();
+        if (!mShimmerHelper.isAnimationStarted() || getWidth() <= 0 || getHeight() <= 0
+                || mShimmerHelper.yieldToCoveringAncestor()) {
             super.dispatchDraw(canvas);
             return;
         }
-        mShimmerHelper.dispatchDrawUsingBitmap(canvas);
+        mShimmerHelper.dispatchDrawShimmer(canvas);
+    }
+
+    @Override
+    public ShimmerHelper getShimmerHelper() {
+        return mShimmerHelper;
     }
 
     @Override
@@ -72,11 +145,21 @@ public class ShimmerRelativeLayout extends RelativeLayout implements ShimmerCall
         return getHeight();
     }
 
+    @Override
+    public int getViewId() {
+        return getId();
+    }
+
     @Override
     public void doInvalidate() {
         invalidate();
     }
 
+    @Override
+    public void doPostInvalidate() {
+        postInvalidate();
+    }
+
     @Override
     public void startAnimation() {
         if (mShimmerHelper != null) {
@@ -0,0 +1,90 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import android.view.Choreographer;
+
+/**
+ * Render bitmaps handed over from containers destroyed by a configuration change, keyed by view
+ * id, so the recreated container with the same id can take them back instead of allocating new
+ * ones when its size did not change. Entries are only kept until the recreated activity has drawn
+ * its first frame; whatever was not claimed by then is recycled.
+ */
+final class ShimmerRetainedCache {
+    private static final int MAX_SIZE_BYTES = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16);
+
+    private static final LruCache<String, Bitmap> sBitmaps = new LruCache<String, Bitmap>(MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getRowBytes() * value.getHeight();
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+            if (oldValue != newValue && (evicted || newValue != null)) {
+                oldValue.recycle();
+            }
+        }
+    };
+
+    private static boolean sEvictionScheduled;
+
+    // The relaunch runs in a single message, so the first frame after it is the recreated
+    // activity's first traversal; its animation callbacks run before the traversal, hence the
+    // eviction waits for the frame after that one
+    private static final Choreographer.FrameCallback sEvictAfterNextFrame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            Choreographer.getInstance().postFrameCallback(sEvict);
+        }
+    };
+
+    private static final Choreographer.FrameCallback sEvict = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            sEvictionScheduled = false;
+            sBitmaps.evictAll();
+        }
+    };
+
+    private ShimmerRetainedCache() {
+    }
+
+    static String key(int viewId, String name) {
+        return viewId + ":" + name;
+    }
+
+    /**
+     * Retain a bitmap; must be called on the UI thread
+     */
+    static void put(String key, Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        sBitmaps.put(key, bitmap);
+        if (!sEvictionScheduled) {
+            sEvictionScheduled = true;
+            Choreographer.getInstance().postFrameCallback(sEvictAfterNextFrame);
+        }
+    }
+
+    static void clear() {
+        sBitmaps.evictAll();
+        sEvictionScheduled = false;
+    }
+
+    /**
+     * Take back a retained bitmap if it has the given size; one of another size is recycled
+     */
+    static Bitmap take(String key, int width, int height) {
+        Bitmap bitmap = sBitmaps.remove(key);
+        if (bitmap == null || bitmap.isRecycled()) {
+            return null;
+        }
+        if (bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            bitmap.recycle();
+            return null;
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.View;
+
+/**
+ * Saved state shared by the shimmer containers, holding the animation phase so a recreated
+ * container continues the sweep where the old one was instead of restarting it
+ */
+public class ShimmerSavedState extends View.BaseSavedState {
+
+    // current play time of the shimmer animator, or -1 when it was not running
+    long playTime;
+    // uptime at which the state was saved, to account for the time spent recreating the view
+    long savedAtUptime;
+    // process that saved the state; uptime counts from boot, so time spent while the process was
+    // dead must not be added to the phase
+    int savedByPid = Process.myPid();
+
+    ShimmerSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    private ShimmerSavedState(Parcel in) {
+        super(in);
+        playTime = in.readLong();
+        savedAtUptime = in.readLong();
+        savedByPid = in.readInt();
+    }
+
+    /**
+     * Get the play time the restored animation should resume at
+     *
+     * @return The saved play time advanced by the time elapsed since saving, or -1
+     */
+    long getResumePlayTime() {
+        if (playTime < 0) {
+            return -1;
+        }
+        if (savedByPid != Process.myPid()) {
+            // restored in a new process, only the saved phase is meaningful
+            return playTime;
+        }
+        long elapsed = SystemClock.uptimeMillis() - savedAtUptime;
+        return elapsed >= 0 ? playTime + elapsed : playTime;
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        super.writeToParcel(out, flags);
+        out.writeLong(playTime);
+        out.writeLong(savedAtUptime);
+        out.writeInt(savedByPid);
+    }
+
+    public static final Parcelable.Creator<ShimmerSavedState> CREATOR =
+            new Parcelable.Creator<ShimmerSavedState>() {
+                @Override
+                public ShimmerSavedState createFromParcel(Parcel in) {
+                    return new ShimmerSavedState(in);
+                }
+
+                @Override
+                public ShimmerSavedState[] newArray(int size) {
+                    return new ShimmerSavedState[size];
+                }
+            };
+}
@@ -0,0 +1,103 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.drawFrame;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.layOut;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.startAtPhase;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Publishing configurations from other threads through {@link ShimmerHelper#postConfig} and
+ * {@link ShimmerHelper#compareAndSetConfig}, and installing them on the UI thread
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 30)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShimmerConfigUpdateTest {
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+    }
+
+    @Test
+    public void postedConfigIsInstalledByTheNextDrawAtTheSamePlayTime() {
+        ShimmerFrameLayout container = layOut(new ShimmerFrameLayout(mContext));
+        final ShimmerHelper helper = container.getShimmerHelper();
+        startAtPhase(container, 0.3f);
+        long playTime = helper.getAnimationPlayTime();
+        final ShimmerConfig posted = helper.getConfig().buildUpon().setDuration(2000).build();
+
+        runOnWorker(new Runnable() {
+            @Override
+            public void run() {
+                helper.postConfig(posted);
+            }
+        });
+
+        assertSame(posted, helper.getConfig());
+        assertNotSame(posted, helper.getInstalledConfig());
+
+        drawFrame(container);
+
+        assertSame(posted, helper.getInstalledConfig());
+        assertTrue(helper.isAnimationStarted());
+        assertTrue("play time " + helper.getAnimationPlayTime() + " instead of " + playTime,
+                Math.abs(helper.getAnimationPlayTime() - playTime) <= 1);
+    }
+
+    @Test
+    public void setterKeepsACompareAndSetThatWonTheRace() {
+        ShimmerFrameLayout container = layOut(new ShimmerFrameLayout(mContext));
+        final ShimmerHelper helper = container.getShimmerHelper();
+        final AtomicBoolean workerPublished = new AtomicBoolean();
+
+        // the worker publishes between the setter reading the latest config and publishing its own
+        helper.updateConfig(new ShimmerHelper.ConfigUpdate() {
+            @Override
+            public ShimmerConfig apply(final ShimmerConfig current) {
+                if (current.duration != 2000) {
+                    runOnWorker(new Runnable() {
+                        @Override
+                        public void run() {
+                            workerPublished.set(helper.compareAndSetConfig(current,
+                                    current.buildUpon().setDuration(2000).build()));
+                        }
+                    });
+                }
+                return current.buildUpon().setBaseAlpha(0.6f).build();
+            }
+        });
+
+        assertTrue(workerPublished.get());
+        assertEquals(2000, helper.getConfig().duration);
+        assertEquals(0.6f, helper.getConfig().baseAlpha, 0);
+        assertSame(helper.getConfig(), helper.getInstalledConfig());
+    }
+
+    private static void runOnWorker(Runnable runnable) {
+        Thread worker = new Thread(runnable);
+        worker.start();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
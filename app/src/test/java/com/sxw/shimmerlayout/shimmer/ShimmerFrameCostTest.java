@@ -0,0 +1,173 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.HEIGHT;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.WIDTH;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.drawFrame;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.layOut;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.seekToPhase;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.startAtPhase;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records the per-frame work of the render path through {@link ShimmerHelper.RenderStats}, so a
+ * rewrite of the draw code has to state any change of cost explicitly here
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 30)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShimmerFrameCostTest {
+    private static final long RENDER_BITMAP_BYTES = 4L * WIDTH * HEIGHT;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+    }
+
+    @Test
+    public void idleContainerDoesNoShimmerWork() {
+        ShimmerFrameLayout container = layOut(new ShimmerFrameLayout(mContext));
+        ShimmerHelper.RenderStats stats = container.getShimmerHelper().getRenderStats();
+
+        drawFrame(container);
+
+        assertEquals(0, stats.getFrames());
+        assertEquals(0, stats.getBitmapAllocations());
+        assertEquals(0, container.getShimmerHelper().getHeldBitmapBytes());
+    }
+
+    @Test
+    public void linearMaskAllocatesTwoRenderBitmapsOnce() {
+        assertMaskModeCost(layOut(new ShimmerFrameLayout(mContext)));
+        assertMaskModeCost(layOut(new ShimmerLinearLayout(mContext)));
+        assertMaskModeCost(layOut(new ShimmerRelativeLayout(mContext)));
+    }
+
+    @Test
+    public void radialMaskAlsoAllocatesTheMaskBitmap() {
+        ShimmerFrameLayout container = layOut(new ShimmerFrameLayout(mContext));
+        ShimmerHelper helper = container.getShimmerHelper();
+        helper.applyConfig(ShimmerConfig.getDefault().buildUpon()
+                .setShape(ShimmerHelper.MaskShape.RADIAL)
+                .build());
+        startAtPhase(container, 0.5f);
+        helper.getRenderStats().reset();
+
+        drawFrame(container);
+        drawFrame(container);
+
+        ShimmerHelper.RenderStats stats = helper.getRenderStats();
+        assertEquals(2, stats.getFrames());
+        assertEquals(4, stats.getSuperDispatchDraws());
+        assertEquals(3, stats.getBitmapAllocations());
+        assertEquals(3 * RENDER_BITMAP_BYTES, helper.getHeldBitmapBytes());
+    }
+
+    @Test
+    public void colorHighlightNeedsNoBitmaps() {
+        ShimmerRelativeLayout container = layOut(new ShimmerRelativeLayout(mContext));
+        ShimmerHelper helper = container.getShimmerHelper();
+        helper.setHighlightMode(ShimmerHelper.HighlightMode.COLOR);
+        startAtPhase(container, 0.25f);
+        helper.getRenderStats().reset();
+
+        drawFrame(container);
+
+        ShimmerHelper.RenderStats stats = helper.getRenderStats();
+        assertEquals(1, stats.getFrames());
+        // the children are drawn once into the layer and tinted in place, half of the mask mode
+        assertEquals(1, stats.getSuperDispatchDraws());
+        assertEquals(0, stats.getBitmapAllocations());
+        assertEquals(0, helper.getHeldBitmapBytes());
+    }
+
+    @Test
+    public void eachAnimationStepInvalidatesOnce() {
+        ShimmerLinearLayout container = layOut(new ShimmerLinearLayout(mContext));
+        ShimmerHelper helper = container.getShimmerHelper();
+        startAtPhase(container, 0.25f);
+        helper.getRenderStats().reset();
+
+        seekToPhase(container, 0.5f);
+
+        assertEquals(1, helper.getRenderStats().getInvalidations());
+    }
+
+    @Test
+    public void nestedContainerLeavesTheSweepToItsAncestor() {
+        ShimmerRelativeLayout outer = new ShimmerRelativeLayout(mContext);
+        ShimmerLinearLayout inner = layOut(new ShimmerLinearLayout(mContext));
+        outer.addView(inner, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        layOut(outer);
+        inner.getShimmerHelper().onAttachedToWindow(inner);
+        startAtPhase(outer, 0.5f);
+        startAtPhase(inner, 0.5f);
+        inner.getShimmerHelper().getRenderStats().reset();
+
+        drawFrame(outer);
+
+        assertTrue(inner.getShimmerHelper().isCoveredByAncestor());
+        assertEquals(0, inner.getShimmerHelper().getRenderStats().getFrames());
+        assertEquals(0, inner.getShimmerHelper().getHeldBitmapBytes());
+    }
+
+    @Test
+    public void coveredContainerReleasesItsBitmapsUntilTheAncestorStops() {
+        ShimmerRelativeLayout outer = new ShimmerRelativeLayout(mContext);
+        ShimmerLinearLayout inner = layOut(new ShimmerLinearLayout(mContext));
+        outer.addView(inner, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        layOut(outer);
+        ShimmerHelper helper = inner.getShimmerHelper();
+        helper.onAttachedToWindow(inner);
+        startAtPhase(inner, 0.25f);
+        drawFrame(inner);
+        assertEquals(2 * RENDER_BITMAP_BYTES, helper.getHeldBitmapBytes());
+        long playTime = helper.getAnimationPlayTime();
+
+        startAtPhase(outer, 0.5f);
+        drawFrame(outer);
+
+        assertEquals(0, helper.getHeldBitmapBytes());
+        assertFalse(helper.isAnimatorRunning());
+        assertEquals(playTime, helper.getAnimationPlayTime());
+
+        outer.stopAnimation();
+
+        assertTrue(helper.isAnimatorRunning());
+        assertEquals(playTime, helper.getAnimationPlayTime());
+    }
+
+    private static void assertMaskModeCost(ShimmerCallBack container) {
+        ShimmerHelper helper = container.getShimmerHelper();
+        startAtPhase(container, 0.5f);
+        helper.getRenderStats().reset();
+
+        drawFrame((View) container);
+        ShimmerHelper.RenderStats stats = helper.getRenderStats();
+        assertEquals(1, stats.getFrames());
+        assertEquals(2, stats.getSuperDispatchDraws());
+        assertEquals(2, stats.getBitmapAllocations());
+
+        stats.reset();
+        drawFrame((View) container);
+        assertEquals(1, stats.getFrames());
+        assertEquals(2, stats.getSuperDispatchDraws());
+        assertEquals(0, stats.getBitmapAllocations());
+        assertEquals(2 * RENDER_BITMAP_BYTES, helper.getHeldBitmapBytes());
+    }
+}
@@ -0,0 +1,96 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.assertMatchesGolden;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.drawFrame;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.layOut;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.startAtPhase;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 30)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShimmerGoldenFrameTest {
+    private static final float[] PHASES = {0f, 0.25f, 0.5f, 0.75f};
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+    }
+
+    @Test
+    public void frameLayoutMatchesGoldenFrames() {
+        for (float phase : PHASES) {
+            assertPhase(layOut(new ShimmerFrameLayout(mContext)), "frame", phase);
+        }
+    }
+
+    @Test
+    public void linearLayoutMatchesGoldenFrames() {
+        for (float phase : PHASES) {
+            assertPhase(layOut(new ShimmerLinearLayout(mContext)), "linear", phase);
+        }
+    }
+
+    @Test
+    public void relativeLayoutMatchesGoldenFrames() {
+        for (float phase : PHASES) {
+            assertPhase(layOut(new ShimmerRelativeLayout(mContext)), "relative", phase);
+        }
+    }
+
+    @Test
+    public void radialMaskMatchesGoldenFrames() {
+        for (float phase : PHASES) {
+            ShimmerFrameLayout container = layOut(new ShimmerFrameLayout(mContext));
+            container.getShimmerHelper().applyConfig(ShimmerConfig.getDefault().buildUpon()
+                    .setShape(ShimmerHelper.MaskShape.RADIAL)
+                    .build());
+            assertPhase(container, "frame_radial", phase);
+        }
+    }
+
+    @Test
+    public void tiltedVerticalMaskMatchesGoldenFrames() {
+        for (float phase : PHASES) {
+            ShimmerLinearLayout container = layOut(new ShimmerLinearLayout(mContext));
+            container.getShimmerHelper().applyConfig(ShimmerConfig.getDefault().buildUpon()
+                    .setAngle(ShimmerHelper.MaskAngle.CW_90)
+                    .setTilt(45)
+                    .setDropoff(0.3f)
+                    .setIntensity(0.2f)
+                    .build());
+            assertPhase(container, "linear_cw90_tilt45", phase);
+        }
+    }
+
+    @Test
+    public void colorHighlightMatchesGoldenFrames() {
+        for (float phase : PHASES) {
+            ShimmerRelativeLayout container = layOut(new ShimmerRelativeLayout(mContext));
+            container.getShimmerHelper().applyConfig(ShimmerConfig.getDefault().buildUpon()
+                    .setHighlightMode(ShimmerHelper.HighlightMode.COLOR)
+                    .setHighlightColor(Color.YELLOW)
+                    .build());
+            assertPhase(container, "relative_color", phase);
+        }
+    }
+
+    private static <T extends ViewGroup & ShimmerCallBack> void assertPhase(T container, String name, float phase) {
+        startAtPhase(container, phase);
+        assertMatchesGolden(drawFrame((View) container), name + "_" + (int) (phase * 100));
+    }
+}
@@ -0,0 +1,110 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.widget.LinearLayout;
+
+import com.sxw.shimmerlayout.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Builds a 30-row skeleton list the way LayoutInflater does, every row constructed from the same
+ * shimmer attributes, with the parsed attribute cache cleared before every row and with it kept
+ * warm. The default run only checks that warm rows share one parsed configuration and cold rows do
+ * not; {@code ./gradlew test -Pbenchmark=true} also times both.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 30)
+public class ShimmerInflationBenchmarkTest {
+    private static final int ROWS = 30;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private Context mContext;
+    private AttributeSet mRowAttrs;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+        mRowAttrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.base_alpha, "0.4")
+                .addAttribute(R.attr.duration, "1200")
+                .addAttribute(R.attr.dropoff, "0.4")
+                .addAttribute(R.attr.fixed_width, "160dp")
+                .addAttribute(R.attr.intensity, "0.1")
+                .addAttribute(R.attr.repeat_delay, "300")
+                .addAttribute(R.attr.tilt, "15")
+                .build();
+    }
+
+    @Test
+    public void warmCacheSharesOneConfigAcrossRows() {
+        ShimmerConfig.clearCache();
+        LinearLayout list = inflateSkeleton(false);
+
+        ShimmerConfig first = configOfRow(list, 0);
+        for (int i = 1; i < ROWS; i++) {
+            assertSame(first, configOfRow(list, i));
+        }
+    }
+
+    @Test
+    public void coldCacheParsesEveryRow() {
+        LinearLayout list = inflateSkeleton(true);
+
+        assertNotSame(configOfRow(list, 0), configOfRow(list, 1));
+    }
+
+    @Test
+    public void benchmarkSkeletonInflation() {
+        assumeTrue("Run with ./gradlew test -Pbenchmark=true", Boolean.getBoolean("shimmer.benchmark"));
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            inflateSkeleton(true);
+            inflateSkeleton(false);
+        }
+
+        long coldNanos = 0;
+        long warmNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            inflateSkeleton(true);
+            coldNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            inflateSkeleton(false);
+            warmNanos += System.nanoTime() - start;
+        }
+        System.out.println("Inflating " + ROWS + " skeleton rows: without cache "
+                + coldNanos / MEASURED_ROUNDS / 1000 + " us, with cache "
+                + warmNanos / MEASURED_ROUNDS / 1000 + " us");
+        assertTrue("a warm cache should skip obtainStyledAttributes", warmNanos < coldNanos);
+    }
+
+    private LinearLayout inflateSkeleton(boolean clearCachePerRow) {
+        LinearLayout list = new LinearLayout(mContext);
+        list.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < ROWS; i++) {
+            if (clearCachePerRow) {
+                ShimmerConfig.clearCache();
+            }
+            list.addView(new ShimmerLinearLayout(mContext, mRowAttrs));
+        }
+        return list;
+    }
+
+    private static ShimmerConfig configOfRow(LinearLayout list, int row) {
+        return ((ShimmerCallBack) list.getChildAt(row)).getShimmerHelper().getConfig();
+    }
+}
@@ -0,0 +1,130 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.app.Activity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.HEIGHT;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.WIDTH;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.drawFrame;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.layOut;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The leak checks {@link ShimmerRegistry} is meant for: containers removed from the window while
+ * still holding bitmaps or a running animator are reported, collected ones are forgotten
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 30)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShimmerRegistryTest {
+
+    private Activity mActivity;
+    private FrameLayout mRoot;
+
+    @Before
+    public void setUp() {
+        ShimmerRegistry.setEnabled(false);
+        ShimmerRegistry.setEnabled(true);
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        mRoot = new FrameLayout(mActivity);
+        mActivity.setContentView(mRoot);
+    }
+
+    @After
+    public void tearDown() {
+        ShimmerRegistry.setEnabled(false);
+    }
+
+    @Test
+    public void detachedContainerHoldingBitmapsIsSuspicious() {
+        ShimmerFrameLayout container = attach(new ShimmerFrameLayout(mActivity));
+        container.startAnimation();
+        drawFrame(container);
+        container.stopAnimation();
+        assertTrue(ShimmerRegistry.findSuspicious().isEmpty());
+
+        mRoot.removeView(container);
+
+        assertSuspicious(container.getShimmerHelper(), true, false);
+    }
+
+    @Test
+    public void detachedContainerWithARunningAnimatorIsSuspicious() {
+        ShimmerLinearLayout container = attach(new ShimmerLinearLayout(mActivity));
+        // restart after the attach traversal, Robolectric ends infinite animators once the main
+        // looper idles
+        container.stopAnimation();
+        container.startAnimation();
+        assertTrue(container.getShimmerHelper().isAnimatorRunning());
+        assertTrue(ShimmerRegistry.findSuspicious().isEmpty());
+
+        mRoot.removeView(container);
+
+        assertSuspicious(container.getShimmerHelper(), false, true);
+    }
+
+    @Test
+    public void detachedIdleContainerIsNotSuspicious() {
+        ShimmerRelativeLayout container = attach(new ShimmerRelativeLayout(mActivity));
+        container.stopAnimation();
+
+        mRoot.removeView(container);
+
+        assertEquals(1, ShimmerRegistry.snapshot().size());
+        assertTrue(ShimmerRegistry.findSuspicious().isEmpty());
+    }
+
+    @Test
+    public void collectedHelpersDropOutOfTheRegistry() throws InterruptedException {
+        WeakReference<ShimmerHelper> helper = createUnreferencedContainer();
+        assertEquals(1, ShimmerRegistry.snapshot().size());
+
+        for (int i = 0; i < 50 && helper.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertNull(helper.get());
+        assertTrue(ShimmerRegistry.snapshot().isEmpty());
+    }
+
+    private WeakReference<ShimmerHelper> createUnreferencedContainer() {
+        ShimmerFrameLayout container = layOut(new ShimmerFrameLayout(mActivity));
+        drawFrame(container);
+        return new WeakReference<>(container.getShimmerHelper());
+    }
+
+    private <T extends ViewGroup & ShimmerCallBack> T attach(T container) {
+        mRoot.addView(layOut(container), new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        ShadowLooper.idleMainLooper();
+        assertTrue(container.getShimmerHelper().isAttached());
+        return container;
+    }
+
+    private static void assertSuspicious(ShimmerHelper helper, boolean holdsBitmaps, boolean animatorRunning) {
+        List<ShimmerRegistry.Entry> suspicious = ShimmerRegistry.findSuspicious();
+        assertEquals(1, suspicious.size());
+        ShimmerRegistry.Entry entry = suspicious.get(0);
+        assertEquals(helper.describe(), entry.name);
+        assertFalse(entry.attached);
+        assertEquals(holdsBitmaps, entry.bitmapBytes > 0);
+        assertEquals(animatorRunning, entry.animatorRunning);
+    }
+}
@@ -0,0 +1,131 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.Process;
+import android.os.SystemClock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.layOut;
+import static com.sxw.shimmerlayout.shimmer.ShimmerTestHarness.startAtPhase;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * What survives a configuration change or process death: the animation phase through
+ * {@link ShimmerSavedState} and the render bitmaps through {@link ShimmerRetainedCache}
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 30)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShimmerStateRetentionTest {
+    private static final long ELAPSED = 150;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+        ShimmerRetainedCache.clear();
+    }
+
+    @Test
+    public void restoredContainerResumesThePhaseAdvancedByTheRecreationTime() {
+        ShimmerFrameLayout old = layOut(new ShimmerFrameLayout(mContext));
+        startAtPhase(old, 0.4f);
+        long playTime = old.getShimmerHelper().getAnimationPlayTime();
+        ShimmerSavedState state = parcel(old.onSaveInstanceState());
+        old.stopAnimation();
+        ShadowLooper.idleMainLooper(ELAPSED, TimeUnit.MILLISECONDS);
+
+        ShimmerFrameLayout recreated = layOut(new ShimmerFrameLayout(mContext));
+        recreated.onRestoreInstanceState(state);
+        recreated.startAnimation();
+
+        assertClose(playTime + ELAPSED, recreated.getShimmerHelper().getAnimationPlayTime());
+    }
+
+    @Test
+    public void stateRestoredInAnotherProcessKeepsOnlyThePhase() {
+        ShimmerSavedState state = new ShimmerSavedState(ShimmerSavedState.EMPTY_STATE);
+        state.playTime = 300;
+        state.savedAtUptime = SystemClock.uptimeMillis() - 10000;
+        state.savedByPid = Process.myPid() + 1;
+
+        assertEquals(300, parcel(state).getResumePlayTime());
+
+        state.savedByPid = Process.myPid();
+        assertEquals(300 + 10000, parcel(state).getResumePlayTime());
+    }
+
+    @Test
+    public void stateOfAStoppedShimmerRestoresNothing() {
+        ShimmerLinearLayout old = layOut(new ShimmerLinearLayout(mContext));
+        ShimmerSavedState state = parcel(old.onSaveInstanceState());
+
+        assertEquals(-1, state.getResumePlayTime());
+    }
+
+    @Test
+    public void retainedBitmapOfTheSameSizeIsTakenBack() {
+        Bitmap bitmap = Bitmap.createBitmap(200, 80, Bitmap.Config.ARGB_8888);
+        String key = ShimmerRetainedCache.key(1, "mask");
+        ShimmerRetainedCache.put(key, bitmap);
+
+        assertSame(bitmap, ShimmerRetainedCache.take(key, 200, 80));
+        assertFalse(bitmap.isRecycled());
+        assertNull(ShimmerRetainedCache.take(key, 200, 80));
+    }
+
+    @Test
+    public void retainedBitmapOfAnotherSizeIsRecycled() {
+        Bitmap bitmap = Bitmap.createBitmap(200, 80, Bitmap.Config.ARGB_8888);
+        String key = ShimmerRetainedCache.key(2, "mask");
+        ShimmerRetainedCache.put(key, bitmap);
+
+        assertNull(ShimmerRetainedCache.take(key, 80, 200));
+        assertTrue(bitmap.isRecycled());
+    }
+
+    @Test
+    public void unclaimedBitmapIsRecycledOnceFramesWereDrawn() {
+        Bitmap bitmap = Bitmap.createBitmap(200, 80, Bitmap.Config.ARGB_8888);
+        String key = ShimmerRetainedCache.key(3, "unmask");
+        ShimmerRetainedCache.put(key, bitmap);
+
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+
+        assertTrue(bitmap.isRecycled());
+        assertNull(ShimmerRetainedCache.take(key, 200, 80));
+    }
+
+    private static ShimmerSavedState parcel(Parcelable state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return ShimmerSavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static void assertClose(long expected, long actual) {
+        assertTrue("play time " + actual + " instead of " + expected, Math.abs(expected - actual) <= 1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.sxw.shimmerlayout.shimmer;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Lays out shimmer containers at a fixed size, renders them at fixed animation phases and compares
+ * the frames with golden images under src/test/resources/golden.
+ * Run {@code ./gradlew test -PrecordGoldens=true} to record missing or intentionally changed goldens.
+ */
+final class ShimmerTestHarness {
+    static final int WIDTH = 200;
+    static final int HEIGHT = 80;
+
+    private static final File GOLDEN_DIR = new File("src/test/resources/golden");
+    // per channel, to absorb anti-aliasing differences between native graphics builds
+    private static final int TOLERANCE = 2;
+
+    private ShimmerTestHarness() {
+    }
+
+    /**
+     * Fill the container with two opaque children and lay it out at {@link #WIDTH} x {@link #HEIGHT}
+     */
+    static <T extends ViewGroup & ShimmerCallBack> T layOut(T container) {
+        View left = new View(container.getContext());
+        left.setBackgroundColor(Color.rgb(0xd0, 0x30, 0x30));
+        View right = new View(container.getContext());
+        right.setBackgroundColor(Color.rgb(0x30, 0x60, 0xd0));
+        container.addView(left, new ViewGroup.LayoutParams(WIDTH / 2, HEIGHT));
+        container.addView(right, new ViewGroup.LayoutParams(WIDTH / 2, HEIGHT / 2));
+
+        container.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        container.layout(0, 0, WIDTH, HEIGHT);
+        return container;
+    }
+
+    /**
+     * Start the shimmer and move it to the given fraction of one sweep
+     */
+    static void startAtPhase(ShimmerCallBack container, float phase) {
+        ShimmerHelper helper = container.getShimmerHelper();
+        helper.restoreAnimationPlayTime((long) (phase * helper.getConfig().duration));
+        helper.startShimmerAnimation();
+    }
+
+    static void seekToPhase(ShimmerCallBack container, float phase) {
+        ShimmerHelper helper = container.getShimmerHelper();
+        helper.restoreAnimationPlayTime((long) (phase * helper.getConfig().duration));
+    }
+
+    static Bitmap drawFrame(View container) {
+        Bitmap frame = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        container.draw(new Canvas(frame));
+        return frame;
+    }
+
+    static void assertMatchesGolden(Bitmap actual, String name) {
+        File golden = new File(GOLDEN_DIR, name + ".png");
+        if (Boolean.getBoolean("shimmer.recordGoldens")) {
+            writePng(actual, golden);
+            return;
+        }
+        if (!golden.exists()) {
+            fail("Missing golden frame " + golden.getPath() + ", record it with ./gradlew test -PrecordGoldens=true");
+        }
+        Bitmap expected = BitmapFactory.decodeFile(golden.getPath());
+        assertEquals(name + " width", expected.getWidth(), actual.getWidth());
+        assertEquals(name + " height", expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                int e = expected.getPixel(x, y);
+                int a = actual.getPixel(x, y);
+                assertTrue(name + " differs at (" + x + ", " + y + "): expected #"
+                                + Integer.toHexString(e) + " but was #" + Integer.toHexString(a),
+                        isClose(e, a));
+            }
+        }
+    }
+
+    private static boolean isClose(int expected, int actual) {
+        return Math.abs(Color.alpha(expected) - Color.alpha(actual)) <= TOLERANCE
+                && Math.abs(Color.red(expected) - Color.red(actual)) <= TOLERANCE
+                && Math.abs(Color.green(expected) - Color.green(actual)) <= TOLERANCE
+                && Math.abs(Color.blue(expected) - Color.blue(actual)) <= TOLERANCE;
+    }
+
+    private static void writePng(Bitmap bitmap, File file) {
+        file.getParentFile().mkdirs();
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            throw new AssertionError("Could not record " + file.getPath(), e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}